@@ -0,0 +1,13 @@
+package com.jencys.entrevista.data.dao;
+
+import com.jencys.entrevista.data.entity.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface OutboxDao extends JpaRepository<OutboxEvent, Long> {
+    List<OutboxEvent> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+    Optional<OutboxEvent> findFirstByOrderByIdAsc();
+}
@@ -1,10 +1,35 @@
 package com.jencys.entrevista.data.dao;
 
 import com.jencys.entrevista.data.entity.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserDao extends JpaRepository<User, String> {
     Optional<User> findByEmail(String email);
+    // a Slice fetches size + 1 rows to know if there is a next page, no count query
+    Slice<User> findAllBy(Pageable pageable);
+    List<ChangedUser> findByModifiedAfter(Date modified);
+    List<AuthUser> findByIdIn(Collection<String> ids);
+
+    interface ChangedUser {
+        String getId();
+        String getEmail();
+        Date getModified();
+    }
+
+    interface AuthUser {
+        String getId();
+        String getEmail();
+        String getName();
+        String getPassword();
+        Boolean getIsActive();
+        Long getVersion();
+        Date getModified();
+    }
 }
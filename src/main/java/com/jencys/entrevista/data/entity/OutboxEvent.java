@@ -0,0 +1,32 @@
+package com.jencys.entrevista.data.entity;
+
+import lombok.*;
+
+import javax.persistence.*;
+import java.util.Date;
+
+@Entity
+@Table(name = "outbox_events")
+@Builder
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Column(nullable = false)
+    private String aggregateId;
+    @Column(nullable = false)
+    private String eventType;
+    @Column(length = 4000)
+    private String payload;
+    private Date created;
+
+    @PrePersist
+    protected void createdAt(){
+        if (this.created == null)
+            this.created = new Date();
+    }
+}
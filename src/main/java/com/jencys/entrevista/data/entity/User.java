@@ -2,6 +2,7 @@ package com.jencys.entrevista.data.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.GenericGenerator;
 
 import javax.persistence.*;
@@ -11,7 +12,8 @@ import java.util.Date;
 import java.util.List;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = @Index(name = "idx_users_modified", columnList = "modified"))
+@DynamicUpdate
 @Getter
 @Setter
 @NoArgsConstructor
@@ -41,6 +43,8 @@ public class User {
     private Date lastLogin;
     @JsonIgnore
     private String token;
+    @Version
+    private Long version;
 
     @PrePersist
     protected void createdAt(){
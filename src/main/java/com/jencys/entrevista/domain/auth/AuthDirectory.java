@@ -0,0 +1,162 @@
+package com.jencys.entrevista.domain.auth;
+
+import com.jencys.entrevista.data.dao.UserDao;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory working set of the users seen by the token and login paths, so repeated lookups skip
+ * {@link UserDao#findByEmail(String)}. Users enter on their first lookup and are kept fresh by
+ * polling the rows modified since the watermark; only users already in the directory, by id or by
+ * email, are reloaded, which keeps it at the size of the working set instead of the table.
+ */
+@Component
+@Slf4j
+public class AuthDirectory {
+    private static final int ID_BATCH_SIZE = 500;
+
+    private final UserDao userDao;
+    private final long overlapMillis;
+    private final ConcurrentMap<String, AuthEntry> entriesById = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, String> idsByEmail = new ConcurrentHashMap<>();
+    // nothing older than the start is missing from a directory that was not loaded from a snapshot
+    private final AtomicLong watermark = new AtomicLong(System.currentTimeMillis());
+
+    public AuthDirectory(UserDao userDao, @Value("${auth.directory.overlap-ms:5000}") long overlapMillis) {
+        this.userDao = userDao;
+        this.overlapMillis = overlapMillis;
+    }
+
+    public static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public Optional<AuthEntry> find(String email) {
+        String id = idsByEmail.get(normalize(email));
+        AuthEntry entry = id == null ? null : entriesById.get(id);
+        // keys are normalized but the database lookup is exact, only an exact match may skip it
+        if (entry == null || !entry.getEmail().equals(email))
+            return Optional.empty();
+        return Optional.of(entry);
+    }
+
+    public synchronized void put(AuthEntry entry) {
+        AuthEntry current = entriesById.get(entry.getId());
+        if (current != null) {
+            if (current.getVersion() > entry.getVersion())
+                return;
+            idsByEmail.remove(normalize(current.getEmail()), current.getId());
+        }
+        // the email now belongs to another user (re-registered after a reset), the old entry is gone for good
+        String previousId = idsByEmail.put(normalize(entry.getEmail()), entry.getId());
+        if (previousId != null && !previousId.equals(entry.getId()))
+            entriesById.remove(previousId);
+        entriesById.put(entry.getId(), entry);
+    }
+
+    public synchronized void evict(String email) {
+        String id = idsByEmail.remove(normalize(email));
+        if (id != null)
+            entriesById.remove(id);
+    }
+
+    // a rolled back transaction (a failed patch, the warm-up) must not leave its rows behind
+    public void putAfterCommit(AuthEntry entry) {
+        if (entry.getId() == null || entry.getEmail() == null)
+            return;
+        afterCommit(() -> put(entry));
+    }
+
+    public void evictAfterCommit(String email) {
+        if (email != null)
+            afterCommit(() -> evict(email));
+    }
+
+    /**
+     * Loads the users listed in a snapshot. The snapshot only says which users were in the directory,
+     * their rows are read back by primary key in batches and the entries are built from them, so users
+     * deleted since then are dropped. On the embedded in-memory database every row is gone after a
+     * restart and nothing is kept.
+     *
+     * @return the number of entries loaded
+     */
+    public int load(AuthSnapshot snapshot) {
+        Set<String> ids = snapshot.getEntries().stream().map(AuthSnapshot.Entry::getId).collect(Collectors.toSet());
+        List<UserDao.AuthUser> rows = findByIds(ids);
+        rows.forEach(row -> put(AuthEntry.from(row)));
+        watermark.set(snapshot.getWatermark());
+        return rows.size();
+    }
+
+    @Scheduled(fixedDelayString = "${auth.directory.refresh-interval-ms:5000}")
+    public void refresh() {
+        int applied = applyChanges();
+        if (applied > 0)
+            log.debug("AUTH DIRECTORY REFRESHED {} ENTRIES", applied);
+    }
+
+    /**
+     * Applies the rows modified since the watermark. The query reaches back {@code overlapMillis}
+     * further because {@code modified} is stamped at flush and a slow commit can land behind it;
+     * reapplying a row is harmless since versions only move forward. Only id, email and modified
+     * are read for the changed rows; the auth fields are loaded for the ones the directory holds.
+     */
+    public int applyChanges() {
+        List<UserDao.ChangedUser> changed = userDao.findByModifiedAfter(new Date(watermark.get() - overlapMillis));
+        Set<String> reload = new HashSet<>();
+        for (UserDao.ChangedUser user : changed) {
+            if (user.getId() == null || user.getEmail() == null)
+                continue;
+            if (user.getModified() != null)
+                watermark.accumulateAndGet(user.getModified().getTime(), Math::max);
+            if (entriesById.containsKey(user.getId()) || idsByEmail.containsKey(normalize(user.getEmail())))
+                reload.add(user.getId());
+        }
+        List<UserDao.AuthUser> rows = findByIds(reload);
+        rows.forEach(row -> put(AuthEntry.from(row)));
+        return rows.size();
+    }
+
+    public Collection<AuthEntry> entries() {
+        return new ArrayList<>(entriesById.values());
+    }
+
+    public long getWatermark() {
+        return watermark.get();
+    }
+
+    public int size() {
+        return entriesById.size();
+    }
+
+    private List<UserDao.AuthUser> findByIds(Collection<String> ids) {
+        List<String> pending = new ArrayList<>(ids);
+        List<UserDao.AuthUser> rows = new ArrayList<>();
+        for (int from = 0; from < pending.size(); from += ID_BATCH_SIZE)
+            rows.addAll(userDao.findByIdIn(pending.subList(from, Math.min(from + ID_BATCH_SIZE, pending.size()))));
+        return rows;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,61 @@
+package com.jencys.entrevista.domain.auth;
+
+import com.jencys.entrevista.data.dao.UserDao;
+import com.jencys.entrevista.data.entity.User;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Date;
+
+/**
+ * Auth-relevant slice of a {@link User}, always built from a database row. The password stays in
+ * memory only, the snapshot never writes it. {@code version} is the optimistic lock version, so a
+ * newer row always wins over an older one no matter the order in which they arrive.
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class AuthEntry {
+    private final String id;
+    private final String email;
+    private final String name;
+    @Getter(AccessLevel.NONE)
+    private final String password;
+    private final Boolean isActive;
+    private final long version;
+    private final long modified;
+
+    public static AuthEntry from(User user) {
+        return of(user.getId(), user.getEmail(), user.getName(), user.getPassword(), user.getIsActive(),
+                user.getVersion(), user.getModified());
+    }
+
+    public static AuthEntry from(UserDao.AuthUser user) {
+        return of(user.getId(), user.getEmail(), user.getName(), user.getPassword(), user.getIsActive(),
+                user.getVersion(), user.getModified());
+    }
+
+    private static AuthEntry of(String id, String email, String name, String password, Boolean isActive, Long version, Date modified) {
+        return new AuthEntry(id, email, name, password, isActive,
+                version == null ? -1 : version, modified == null ? 0 : modified.getTime());
+    }
+
+    // constant time, the comparison does not leak how much of the password matched
+    public boolean passwordMatches(String password) {
+        return this.password != null && password != null && MessageDigest.isEqual(
+                this.password.getBytes(StandardCharsets.UTF_8), password.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // detached user with only the fields the token and login paths read, the password is never copied
+    public User toUser() {
+        return User.builder()
+                .id(id)
+                .email(email)
+                .name(name)
+                .isActive(isActive)
+                .version(version < 0 ? null : version)
+                .build();
+    }
+}
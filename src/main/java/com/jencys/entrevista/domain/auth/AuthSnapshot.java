@@ -0,0 +1,24 @@
+package com.jencys.entrevista.domain.auth;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class AuthSnapshot {
+    // greatest modified timestamp already reflected in the entries
+    private final long watermark;
+    private final List<Entry> entries;
+
+    // which user was in the directory and at which version, the auth fields are read back from the database
+    @Getter
+    @AllArgsConstructor
+    public static class Entry {
+        private final String id;
+        private final String email;
+        private final long version;
+        private final long modified;
+    }
+}
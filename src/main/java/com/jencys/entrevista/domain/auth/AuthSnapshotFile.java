@@ -0,0 +1,132 @@
+package com.jencys.entrevista.domain.auth;
+
+import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Binary format of the auth directory snapshot:
+ * <pre>
+ * header  int magic "AUTH", byte format version, long watermark, int entry count
+ * entry   long+long id (UUID), long version, long modified, email as unsigned short length + UTF-8 bytes
+ * trailer long CRC32 of everything before it
+ * </pre>
+ * No password, name or status is written, only which users were in the directory. Files are
+ * written to a temporary sibling and moved into place, so a crash never leaves a half-written
+ * snapshot behind. On POSIX file systems the directory and the file are readable by the owner only.
+ */
+public final class AuthSnapshotFile {
+    private static final int MAGIC = 0x41555448;
+    private static final byte FORMAT_VERSION = 3;
+    private static final int HEADER_SIZE = Integer.BYTES + Byte.BYTES + Long.BYTES + Integer.BYTES;
+    private static final int MAX_EMAIL_BYTES = 0xFFFF;
+    private static final boolean POSIX = FileSystems.getDefault().supportedFileAttributeViews().contains("posix");
+
+    private AuthSnapshotFile() {
+    }
+
+    public static int write(Path file, long watermark, Collection<AuthEntry> entries) throws IOException {
+        List<AuthEntry> writable = new ArrayList<>();
+        entries.stream().filter(AuthSnapshotFile::isWritable).forEach(writable::add);
+
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null && !Files.exists(parent)) {
+            if (POSIX)
+                Files.createDirectories(parent, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+            else
+                Files.createDirectories(parent);
+        }
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.deleteIfExists(tmp);
+        if (POSIX)
+            Files.createFile(tmp, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        else
+            Files.createFile(tmp);
+        CRC32 crc = new CRC32();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new CheckedOutputStream(
+                Files.newOutputStream(tmp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING), crc)))) {
+            out.writeInt(MAGIC);
+            out.writeByte(FORMAT_VERSION);
+            out.writeLong(watermark);
+            out.writeInt(writable.size());
+            for (AuthEntry entry : writable) {
+                UUID id = UUID.fromString(entry.getId());
+                out.writeLong(id.getMostSignificantBits());
+                out.writeLong(id.getLeastSignificantBits());
+                out.writeLong(entry.getVersion());
+                out.writeLong(entry.getModified());
+                byte[] email = entry.getEmail().getBytes(StandardCharsets.UTF_8);
+                out.writeShort(email.length);
+                out.write(email);
+            }
+            out.flush();
+            out.writeLong(crc.getValue());
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return writable.size();
+    }
+
+    public static AuthSnapshot read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE + Long.BYTES || size > Integer.MAX_VALUE)
+                throw new IOException("invalid auth snapshot size " + size);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int trailer = (int) size - Long.BYTES;
+
+            ByteBuffer body = buffer.duplicate();
+            body.limit(trailer);
+            CRC32 crc = new CRC32();
+            crc.update(body);
+            if (crc.getValue() != buffer.getLong(trailer))
+                throw new IOException("auth snapshot checksum mismatch");
+
+            buffer.limit(trailer);
+            if (buffer.getInt() != MAGIC)
+                throw new IOException("not an auth snapshot");
+            byte formatVersion = buffer.get();
+            if (formatVersion != FORMAT_VERSION)
+                throw new IOException("unsupported auth snapshot format " + formatVersion);
+            long watermark = buffer.getLong();
+            int count = buffer.getInt();
+            List<AuthSnapshot.Entry> entries = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                String id = new UUID(buffer.getLong(), buffer.getLong()).toString();
+                long version = buffer.getLong();
+                long modified = buffer.getLong();
+                byte[] email = new byte[buffer.getShort() & 0xFFFF];
+                buffer.get(email);
+                entries.add(new AuthSnapshot.Entry(id, new String(email, StandardCharsets.UTF_8), version, modified));
+            }
+            return new AuthSnapshot(watermark, entries);
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("corrupt auth snapshot", e);
+        }
+    }
+
+    private static boolean isWritable(AuthEntry entry) {
+        if (entry.getId() == null || entry.getEmail() == null)
+            return false;
+        try {
+            UUID.fromString(entry.getId());
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        return entry.getEmail().getBytes(StandardCharsets.UTF_8).length <= MAX_EMAIL_BYTES;
+    }
+}
@@ -0,0 +1,72 @@
+package com.jencys.entrevista.domain.auth;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Persists the {@link AuthDirectory} to a binary snapshot periodically and on shutdown, and loads
+ * it back at startup, before the warm-up runs and readiness is reported. The snapshot holds ids and
+ * emails only; the loaded users are read back from their rows, then the rows modified since the
+ * snapshot watermark are applied. A missing or corrupt snapshot just means a cold start. The file
+ * lives under the user's home by default, out of the working directory.
+ * <p>
+ * Disabled by default. With the embedded in-memory H2 the database is empty after every restart, so
+ * the loaded snapshot matches no row and the feature does nothing; enable it only together with a
+ * persistent {@code spring.datasource.url}.
+ */
+@Component
+@ConditionalOnProperty(name = "auth.snapshot.enabled", havingValue = "true")
+@Slf4j
+public class AuthSnapshotScheduler {
+    private final AuthDirectory authDirectory;
+    private final Path file;
+
+    public AuthSnapshotScheduler(AuthDirectory authDirectory, @Value("${auth.snapshot.file:${user.home}/.entrevista/auth-directory.snapshot}") String file) {
+        this.authDirectory = authDirectory;
+        this.file = Paths.get(file);
+    }
+
+    @EventListener(ApplicationStartedEvent.class)
+    public void load() {
+        if (!Files.exists(file)) {
+            log.info("NO AUTH SNAPSHOT AT {}, STARTING COLD", file);
+            return;
+        }
+        long started = System.nanoTime();
+        try {
+            AuthSnapshot snapshot = AuthSnapshotFile.read(file);
+            int loaded = authDirectory.load(snapshot);
+            int applied = authDirectory.applyChanges();
+            log.info("AUTH DIRECTORY LOADED {} OF {} SNAPSHOT ENTRIES AND APPLIED {} LATER CHANGES IN {} ms",
+                    loaded, snapshot.getEntries().size(), applied, (System.nanoTime() - started) / 1_000_000);
+        } catch (IOException | RuntimeException e) {
+            log.warn("COULD NOT LOAD AUTH SNAPSHOT {}, STARTING COLD", file, e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${auth.snapshot.interval-ms:60000}", initialDelayString = "${auth.snapshot.interval-ms:60000}")
+    public void snapshot() {
+        try {
+            int written = AuthSnapshotFile.write(file, authDirectory.getWatermark(), authDirectory.entries());
+            log.debug("AUTH SNAPSHOT WRITTEN WITH {} ENTRIES", written);
+        } catch (IOException | RuntimeException e) {
+            log.warn("COULD NOT WRITE AUTH SNAPSHOT {}", file, e);
+        }
+    }
+
+    @PreDestroy
+    public void snapshotOnShutdown() {
+        snapshot();
+    }
+}
@@ -17,4 +17,5 @@ public class UserApiResponse {
     private Date modified;
     private Date lastLogin;
     private Boolean isActive;
+    private Long version;
 }
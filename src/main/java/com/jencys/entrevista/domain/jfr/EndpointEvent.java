@@ -0,0 +1,33 @@
+package com.jencys.entrevista.domain.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.jencys.entrevista.Endpoint")
+@Label("Endpoint")
+@Category({"Entrevista", "Presentation"})
+@Description("Full /api request, including response serialization")
+@StackTrace(false)
+public class EndpointEvent extends Event {
+    @Label("Endpoint")
+    @Description("Matched mapping pattern, such as /api/user/{id}")
+    public String endpoint;
+    @Label("HTTP Method")
+    public String httpMethod;
+    @Label("Status")
+    public int status;
+    @Label("Outcome")
+    public String outcome;
+    @Label("Request Bytes")
+    @DataAmount
+    @Description("Content-Length of the request, -1 when unknown")
+    public long requestBytes;
+    @Label("Response Bytes")
+    @DataAmount
+    public long responseBytes;
+}
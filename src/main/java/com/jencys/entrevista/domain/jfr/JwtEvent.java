@@ -0,0 +1,25 @@
+package com.jencys.entrevista.domain.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.jencys.entrevista.Jwt")
+@Label("JWT")
+@Category({"Entrevista", "Domain"})
+@Description("Signing or verification of a JWT")
+@StackTrace(false)
+public class JwtEvent extends Event {
+    public static final String SIGN = "sign";
+    public static final String VERIFY = "verify";
+
+    @Label("Operation")
+    public String operation;
+    @Label("Outcome")
+    public String outcome;
+    @Label("Token Length")
+    public int tokenLength;
+}
@@ -0,0 +1,19 @@
+package com.jencys.entrevista.domain.jfr;
+
+public final class Outcome {
+    public static final String OK = "ok";
+    public static final String REJECTED = "rejected";
+    public static final String NOT_FOUND = "not_found";
+    public static final String ERROR = "error";
+
+    private Outcome() {
+    }
+
+    public static String of(int status) {
+        if (status >= 500)
+            return ERROR;
+        if (status >= 400)
+            return REJECTED;
+        return OK;
+    }
+}
@@ -0,0 +1,22 @@
+package com.jencys.entrevista.domain.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.jencys.entrevista.PersistUser")
+@Label("Persist User")
+@Category({"Entrevista", "Domain"})
+@Description("Validation and insert of a user with its phones")
+@StackTrace(false)
+public class PersistUserEvent extends Event {
+    @Label("Outcome")
+    public String outcome;
+    @Label("Phones")
+    public int phoneCount;
+    @Label("Violations")
+    public int violationCount;
+}
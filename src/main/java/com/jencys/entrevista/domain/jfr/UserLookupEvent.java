@@ -0,0 +1,26 @@
+package com.jencys.entrevista.domain.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.jencys.entrevista.UserLookup")
+@Label("User Lookup")
+@Category({"Entrevista", "Data"})
+@Description("Lookup of a user by email, from the auth directory or UserDao.findByEmail")
+@StackTrace(false)
+public class UserLookupEvent extends Event {
+    @Label("Operation")
+    @Description("Service operation that triggered the lookup")
+    public String operation;
+    @Label("Outcome")
+    public String outcome;
+    @Label("Directory Hit")
+    @Description("Served from the in-memory auth directory instead of the database")
+    public boolean cached;
+    @Label("Email Length")
+    public int emailLength;
+}
@@ -0,0 +1,24 @@
+package com.jencys.entrevista.domain.outbox;
+
+import com.jencys.entrevista.data.entity.OutboxEvent;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+@Component
+@ConditionalOnProperty(name = "outbox.publisher", havingValue = "memory", matchIfMissing = true)
+public class InMemoryOutboxPublisher implements OutboxPublisher {
+    private final List<OutboxEvent> published = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(OutboxEvent event) {
+        published.add(event);
+    }
+
+    public List<OutboxEvent> getPublished() {
+        return Collections.unmodifiableList(published);
+    }
+}
@@ -0,0 +1,11 @@
+package com.jencys.entrevista.domain.outbox;
+
+import com.jencys.entrevista.data.entity.OutboxEvent;
+
+/**
+ * Delivers outbox events to downstream systems. Implementations throw on failure so the
+ * {@link OutboxRelay} keeps the event and retries it on the next poll.
+ */
+public interface OutboxPublisher {
+    void publish(OutboxEvent event);
+}
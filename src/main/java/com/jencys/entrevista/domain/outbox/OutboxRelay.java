@@ -0,0 +1,121 @@
+package com.jencys.entrevista.domain.outbox;
+
+import com.jencys.entrevista.data.dao.OutboxDao;
+import com.jencys.entrevista.data.entity.OutboxEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the outbox in id order and hands each event to the {@link OutboxPublisher}. Events are
+ * deleted only after they were published, so delivery is at-least-once.
+ * <p>
+ * The outbox is read in pages after the last id seen, so a sweep walks the whole table even when
+ * events at its head keep failing. When an event fails, the later events of the same user are held
+ * back until the sweep reaches the end and starts again from the first id, which keeps the order
+ * per user without blocking the other users.
+ * <p>
+ * Each node drains the outbox of its own embedded database. With a shared database the relays would
+ * read the same rows, and a lease or a {@code SELECT ... FOR UPDATE SKIP LOCKED} claim is needed
+ * before running more than one.
+ */
+@Component
+@ConditionalOnProperty(name = "outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class OutboxRelay {
+    private final OutboxDao outboxDao;
+    private final OutboxPublisher publisher;
+    private final int batchSize;
+    private final int maxBatchesPerPoll;
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong oldestAgeMillis = new AtomicLong();
+    private final Counter published;
+    private final Counter failed;
+    private final Timer deliveryLag;
+    // sweep state, only touched by the scheduler thread
+    private final Set<String> heldBack = new HashSet<>();
+    private long cursor;
+
+    public OutboxRelay(OutboxDao outboxDao, OutboxPublisher publisher, MeterRegistry meterRegistry,
+                       @Value("${outbox.batch-size:100}") int batchSize,
+                       @Value("${outbox.max-batches-per-poll:10}") int maxBatchesPerPoll) {
+        this.outboxDao = outboxDao;
+        this.publisher = publisher;
+        this.batchSize = batchSize;
+        this.maxBatchesPerPoll = maxBatchesPerPoll;
+        Gauge.builder("outbox.pending", pending, AtomicLong::get)
+                .description("Events waiting in the outbox")
+                .register(meterRegistry);
+        Gauge.builder("outbox.oldest.age", oldestAgeMillis, AtomicLong::get)
+                .description("Age of the oldest event waiting in the outbox")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        this.published = Counter.builder("outbox.published").register(meterRegistry);
+        this.failed = Counter.builder("outbox.failed").register(meterRegistry);
+        this.deliveryLag = Timer.builder("outbox.delivery.lag")
+                .description("Time from the registration to the event being published")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.poll-interval-ms:1000}")
+    public void poll() {
+        // a full page means there may be more waiting, keep draining but give the scheduler thread back
+        // after maxBatchesPerPoll so a steady stream of registrations cannot starve the other tasks,
+        // the next poll carries on from the cursor
+        int batches = 1;
+        while (drain() && batches < maxBatchesPerPoll) {
+            log.debug("OUTBOX FULL PAGE READ, DRAINING AGAIN");
+            batches++;
+        }
+
+        pending.set(outboxDao.count());
+        oldestAgeMillis.set(outboxDao.findFirstByOrderByIdAsc().map(this::ageOf).map(Duration::toMillis).orElse(0L));
+    }
+
+    // publishes the page after the cursor, returns false once the end of the outbox was reached
+    boolean drain() {
+        List<OutboxEvent> page = outboxDao.findByIdGreaterThanOrderByIdAsc(cursor, PageRequest.of(0, batchSize));
+        List<Long> publishedIds = new ArrayList<>();
+        for (OutboxEvent event : page) {
+            if (heldBack.contains(event.getAggregateId()))
+                continue;
+            try {
+                publisher.publish(event);
+                publishedIds.add(event.getId());
+                deliveryLag.record(ageOf(event));
+            } catch (RuntimeException e) {
+                log.warn("FAILED TO PUBLISH OUTBOX EVENT {} FOR {}", event.getId(), event.getAggregateId(), e);
+                heldBack.add(event.getAggregateId());
+                failed.increment();
+            }
+        }
+        if (!publishedIds.isEmpty()) {
+            outboxDao.deleteAllByIdInBatch(publishedIds);
+            published.increment(publishedIds.size());
+        }
+
+        if (page.size() < batchSize) {
+            // end of the sweep, the held back events are retried from the first id on the next poll
+            cursor = 0;
+            heldBack.clear();
+            return false;
+        }
+        cursor = page.get(page.size() - 1).getId();
+        return true;
+    }
+
+    private Duration ageOf(OutboxEvent event) {
+        return Duration.ofMillis(Math.max(0, System.currentTimeMillis() - event.getCreated().getTime()));
+    }
+}
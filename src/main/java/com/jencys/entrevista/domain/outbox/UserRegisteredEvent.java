@@ -0,0 +1,19 @@
+package com.jencys.entrevista.domain.outbox;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserRegisteredEvent {
+    public static final String TYPE = "UserRegistered";
+
+    private String id;
+    private String name;
+    private String email;
+    private Date created;
+}
@@ -1,5 +1,6 @@
 package com.jencys.entrevista.domain.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.jencys.entrevista.data.entity.User;
 import com.jencys.entrevista.domain.dto.UserDTO;
 import com.jencys.entrevista.domain.dto.UserPassword;
@@ -10,7 +11,9 @@ import java.util.Map;
 
 public interface UserService {
     ResponseEntity<Object> findAll();
+    ResponseEntity<Object> findPage(int page, int size);
     ResponseEntity<Object> registerUser(UserDTO userDTO);
     ResponseEntity<Object> getToken(UserPassword userPassword);
     ResponseEntity<Object> login(UserPassword userPassword, Map<String, Object> headers);
+    ResponseEntity<Object> patchUser(String id, JsonNode patch, String ifMatch);
 }
@@ -1,15 +1,28 @@
 package com.jencys.entrevista.domain.service.impl;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jencys.entrevista.data.dao.OutboxDao;
 import com.jencys.entrevista.data.dao.PhoneDao;
 import com.jencys.entrevista.data.dao.UserDao;
+import com.jencys.entrevista.data.entity.OutboxEvent;
 import com.jencys.entrevista.data.entity.Phone;
 import com.jencys.entrevista.data.entity.User;
+import com.jencys.entrevista.domain.auth.AuthDirectory;
+import com.jencys.entrevista.domain.auth.AuthEntry;
 import com.jencys.entrevista.domain.dto.*;
+import com.jencys.entrevista.domain.jfr.Outcome;
+import com.jencys.entrevista.domain.jfr.PersistUserEvent;
+import com.jencys.entrevista.domain.jfr.UserLookupEvent;
+import com.jencys.entrevista.domain.outbox.UserRegisteredEvent;
 import com.jencys.entrevista.domain.service.UserService;
 import com.jencys.entrevista.domain.utils.JwtTokenUtil;
 import io.jsonwebtoken.MalformedJwtException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
@@ -28,9 +41,15 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 @Slf4j
 public class UserServiceImpl implements UserService {
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final List<String> PATCHABLE_FIELDS = Arrays.asList("name", "email", "password", "isActive");
+
     private final UserDao userDao;
     private final PhoneDao phoneDao;
     private final JwtTokenUtil jwtTokenUtil;
+    private final OutboxDao outboxDao;
+    private final ObjectMapper objectMapper;
+    private final AuthDirectory authDirectory;
     @Override
     public ResponseEntity<Object> findAll() {
         List<User> users = userDao.findAll();
@@ -40,7 +59,22 @@ public class UserServiceImpl implements UserService {
         return ResponseEntity.ok(users);
     }
 
+    // ordered by the primary key so the pages are stable and the sort uses its index
+    @Override
+    public ResponseEntity<Object> findPage(int page, int size) {
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE)
+            return ResponseEntity.badRequest().body(new ErrorMessage(Collections.singletonList(
+                    String.format("page debe ser mayor o igual a 0 y size entre 1 y %d", MAX_PAGE_SIZE))));
+        List<User> users = userDao.findAllBy(PageRequest.of(page, size, Sort.by("id"))).getContent();
+        if (users.isEmpty())
+            return ResponseEntity.noContent().build();
+
+        return ResponseEntity.ok(users);
+    }
+
+    // persistUser is a self call, the transaction has to start here for the user and its outbox event to commit together
     @Override
+    @Transactional
     public ResponseEntity<Object> registerUser(UserDTO userDTO) {
 
         List<Phone> phones = Optional.ofNullable(userDTO.getPhones())
@@ -78,6 +112,7 @@ public class UserServiceImpl implements UserService {
                 .modified(body.getModified())
                 .lastLogin(body.getLastLogin())
                 .isActive(body.getIsActive())
+                .version(body.getVersion())
                 .build());
     }
 
@@ -89,11 +124,11 @@ public class UserServiceImpl implements UserService {
         if (email == null || password == null)
             return ResponseEntity.badRequest().body(new ErrorMessage(Collections.singletonList("Email o contrasena invalidos")));
 
-        Optional<User> userOptional = userDao.findByEmail(email);
+        Optional<AuthEntry> userOptional = findAuthEntry(email, "getToken");
         if (userOptional.isEmpty())
             return ResponseEntity.badRequest().body(new ErrorMessage(Collections.singletonList("Email invalido")));
 
-        String token = jwtTokenUtil.generateToken(userOptional.get());
+        String token = jwtTokenUtil.generateToken(userOptional.get().toUser());
         return ResponseEntity.ok(new TokenResponse(token));
     }
 
@@ -104,12 +139,12 @@ public class UserServiceImpl implements UserService {
         if (password == null || email == null)
             return ResponseEntity.badRequest().body(new ErrorMessage(Collections.singletonList("Email y contrasena son campos requeridos")));
 
-        Optional<User> optionalUser = userDao.findByEmail(email);
+        Optional<AuthEntry> optionalUser = findAuthEntry(email, "login");
         if (optionalUser.isEmpty())
             return ResponseEntity.badRequest().body(new ErrorMessage(Collections.singletonList("Email enviado no existe")));
 
-        User user = optionalUser.get();
-        if (!user.getPassword().equals(password)){
+        AuthEntry user = optionalUser.get();
+        if (!user.passwordMatches(password)){
             return ResponseEntity.badRequest().body(new ErrorMessage(Collections.singletonList("Email o contrasena invalidos")));
         }
 
@@ -118,7 +153,7 @@ public class UserServiceImpl implements UserService {
             return ResponseEntity.badRequest().body(new ErrorMessage(Collections.singletonList("bearer token es un campo necesario")));
 
         try {
-            Boolean tokenIsValid = jwtTokenUtil.validateToken(bearer, user);
+            Boolean tokenIsValid = jwtTokenUtil.validateToken(bearer, user.toUser());
             if (!tokenIsValid){
                 return ResponseEntity.badRequest().body(new ErrorMessage(Collections.singletonList("token invalido")));
             }
@@ -130,23 +165,235 @@ public class UserServiceImpl implements UserService {
         return ResponseEntity.ok(new ErrorMessage(Collections.singletonList("Te has logueado ;D")));
     }
 
+    /**
+     * Applies a JSON Merge Patch (RFC 7396) to the user. Only the columns present in the patch are
+     * written (see {@code @DynamicUpdate} on {@link User}) and phones are diffed against the stored
+     * ones instead of being deleted and reinserted. {@code ifMatch} carries the version the client
+     * read: without it the answer is 428, and a mismatch or a concurrent update caught at flush
+     * answers 409.
+     */
+    @Override
     @Transactional
-    ResponseEntity<Object> persistUser(User user, List<Phone> phones){
-        ValidatorFactory factory = Validation.buildDefaultValidatorFactory();
-        Validator validator = factory.getValidator();
-        Set<ConstraintViolation<User>> validate = validator.validate(user);
-        if (!validate.isEmpty()){
-            List<String> errorMessage = new ArrayList<>();
-            validate.forEach(error -> errorMessage.add(String.format("Error en el campo: %s, %s", error.getPropertyPath(), error.getMessage())));
+    public ResponseEntity<Object> patchUser(String id, JsonNode patch, String ifMatch) {
+        if (patch == null || !patch.isObject())
+            return ResponseEntity.badRequest().body(new ErrorMessage(Collections.singletonList("El cuerpo debe ser un objeto JSON")));
+
+        if (ifMatch == null)
+            return ResponseEntity.status(HttpStatus.PRECONDITION_REQUIRED).body(new ErrorMessage(Collections.singletonList("Precondicion requerida: If-Match con la version del usuario es un campo necesario")));
+
+        Long expectedVersion = parseVersion(ifMatch);
+        if (expectedVersion == null)
+            return ResponseEntity.badRequest().body(new ErrorMessage(Collections.singletonList("If-Match invalido")));
+
+        Optional<User> optionalUser = userDao.findById(id);
+        if (optionalUser.isEmpty())
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ErrorMessage(Collections.singletonList("Usuario no existe")));
+
+        User user = optionalUser.get();
+        if (!expectedVersion.equals(user.getVersion()))
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new ErrorMessage(Collections.singletonList("El usuario fue modificado por otra peticion")));
+
+        // validate everything before touching the managed entity, otherwise a rejected patch would still be flushed
+        List<String> errorMessage = new ArrayList<>();
+        Map<String, Object> changes = new LinkedHashMap<>();
+        for (String field : PATCHABLE_FIELDS) {
+            if (!patch.has(field))
+                continue;
+            JsonNode value = patch.get(field);
+            if (value.isNull()) {
+                errorMessage.add(String.format("Error en el campo: %s, es requerido", field));
+            } else if ("isActive".equals(field)) {
+                if (value.isBoolean())
+                    changes.put(field, value.booleanValue());
+                else
+                    errorMessage.add(String.format("Error en el campo: %s, debe ser booleano", field));
+            } else if (value.isTextual()) {
+                changes.put(field, value.textValue());
+            } else {
+                errorMessage.add(String.format("Error en el campo: %s, debe ser texto", field));
+            }
+        }
+        List<PhonesItem> phones = null;
+        if (patch.has("phones"))
+            phones = readPhones(patch.get("phones"), errorMessage);
+
+        Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+        changes.entrySet().stream()
+                .filter(change -> change.getValue() instanceof String)
+                .flatMap(change -> validator.validateValue(User.class, change.getKey(), change.getValue()).stream())
+                .forEach(error -> errorMessage.add(String.format("Error en el campo: %s, %s", error.getPropertyPath(), error.getMessage())));
+        if (!errorMessage.isEmpty())
             return ResponseEntity.badRequest().body(new ErrorMessage(errorMessage));
+
+        String email = (String) changes.get("email");
+        if (email != null && !email.equals(user.getEmail()) && userDao.findByEmail(email).isPresent())
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new ErrorMessage(Collections.singletonList("Email ya registrado")));
+
+        String previousEmail = user.getEmail();
+        if (changes.containsKey("name"))
+            user.setName((String) changes.get("name"));
+        if (changes.containsKey("email"))
+            user.setEmail(email);
+        if (changes.containsKey("password"))
+            user.setPassword((String) changes.get("password"));
+        if (changes.containsKey("isActive"))
+            user.setIsActive((Boolean) changes.get("isActive"));
+        // phones is the inverse side of the relation, touching modified makes the version move with it
+        if (phones != null && mergePhones(user, phones))
+            user.setModified(new Date());
+
+        User userDB = userDao.saveAndFlush(user);
+        // the next lookup reloads the user, so the auth directory never serves the old name, email or password
+        authDirectory.evictAfterCommit(previousEmail);
+        authDirectory.evictAfterCommit(userDB.getEmail());
+
+        return ResponseEntity.ok()
+                .eTag(String.valueOf(userDB.getVersion()))
+                .body(UserApiResponse
+                .builder()
+                .id(userDB.getId())
+                .created(userDB.getCreated())
+                .modified(userDB.getModified())
+                .lastLogin(userDB.getLastLogin())
+                .isActive(userDB.getIsActive())
+                .version(userDB.getVersion())
+                .build());
+    }
+
+    @Transactional
+    ResponseEntity<Object> persistUser(User user, List<Phone> phones){
+        PersistUserEvent event = new PersistUserEvent();
+        event.begin();
+        event.phoneCount = phones.size();
+        event.outcome = Outcome.ERROR;
+        try {
+            ValidatorFactory factory = Validation.buildDefaultValidatorFactory();
+            Validator validator = factory.getValidator();
+            Set<ConstraintViolation<User>> validate = validator.validate(user);
+            if (!validate.isEmpty()){
+                event.violationCount = validate.size();
+                event.outcome = Outcome.REJECTED;
+                List<String> errorMessage = new ArrayList<>();
+                validate.forEach(error -> errorMessage.add(String.format("Error en el campo: %s, %s", error.getPropertyPath(), error.getMessage())));
+                return ResponseEntity.badRequest().body(new ErrorMessage(errorMessage));
+            }
+            User userDB = userDao.save(user);
+            phones.forEach(phone -> {
+                phone.setUser(userDB);
+                phoneDao.save(phone);
+            });
+            outboxDao.save(OutboxEvent.builder()
+                    .aggregateId(user.getId())
+                    .eventType(UserRegisteredEvent.TYPE)
+                    .payload(objectMapper.writeValueAsString(new UserRegisteredEvent(
+                            user.getId(), user.getName(), user.getEmail(), user.getCreated())))
+                    .build());
+            // the email may still point at an earlier user with the same address
+            authDirectory.evictAfterCommit(user.getEmail());
+            event.outcome = Outcome.OK;
+
+            return ResponseEntity.created(URI.create("/api/user/register")).body(user);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("could not serialize the registration event", e);
+        } finally {
+            event.commit();
         }
-        User userDB = userDao.save(user);
-        phones.forEach(phone -> {
-            phone.setUser(userDB);
-            phoneDao.save(phone);
-        });
+    }
+
+    private Optional<AuthEntry> findAuthEntry(String email, String operation){
+        UserLookupEvent event = new UserLookupEvent();
+        event.begin();
+        event.outcome = Outcome.ERROR;
+        try {
+            Optional<AuthEntry> entry = authDirectory.find(email);
+            if (entry.isPresent()) {
+                event.cached = true;
+                event.outcome = Outcome.OK;
+                return entry;
+            }
+            Optional<AuthEntry> user = userDao.findByEmail(email).map(AuthEntry::from);
+            user.ifPresent(authDirectory::putAfterCommit);
+            event.outcome = user.isPresent() ? Outcome.OK : Outcome.NOT_FOUND;
+            return user;
+        } finally {
+            event.operation = operation;
+            event.emailLength = email.length();
+            event.commit();
+        }
+    }
+
+    private Long parseVersion(String ifMatch){
+        String version = ifMatch.trim();
+        if (version.startsWith("W/"))
+            version = version.substring(2);
+        version = version.replace("\"", "");
+        try {
+            return Long.valueOf(version);
+        } catch (NumberFormatException e){
+            return null;
+        }
+    }
+
+    private List<PhonesItem> readPhones(JsonNode node, List<String> errorMessage){
+        if (node.isNull())
+            return Collections.emptyList();
+        if (!node.isArray()) {
+            errorMessage.add("Error en el campo: phones, debe ser una lista");
+            return null;
+        }
+        List<PhonesItem> phones = new ArrayList<>();
+        for (int i = 0; i < node.size(); i++) {
+            JsonNode phoneNode = node.get(i);
+            if (!phoneNode.isObject()) {
+                errorMessage.add(String.format("Error en el campo: phones[%d], debe ser un objeto", i));
+                continue;
+            }
+            String number = readPhoneField(phoneNode, i, "number", errorMessage);
+            String citycode = readPhoneField(phoneNode, i, "citycode", errorMessage);
+            String contrycode = readPhoneField(phoneNode, i, "contrycode", errorMessage);
+            PhonesItem phone = new PhonesItem();
+            phone.setNumber(number);
+            phone.setCitycode(citycode);
+            phone.setContrycode(contrycode);
+            phones.add(phone);
+        }
+        return phones;
+    }
 
-        return ResponseEntity.created(URI.create("/api/user/register")).body(user);
+    private String readPhoneField(JsonNode phoneNode, int index, String field, List<String> errorMessage){
+        JsonNode value = phoneNode.get(field);
+        if (value == null || !value.isTextual()) {
+            errorMessage.add(String.format("Error en el campo: phones[%d].%s, debe ser texto", index, field));
+            return null;
+        }
+        return value.textValue();
     }
 
+    // keeps the phones that are still present, deletes the missing ones and inserts only the new ones
+    private boolean mergePhones(User user, List<PhonesItem> desired){
+        if (user.getPhones() == null)
+            user.setPhones(new ArrayList<>());
+        List<Phone> current = user.getPhones();
+        List<PhonesItem> toAdd = new ArrayList<>(desired);
+        List<Phone> toRemove = new ArrayList<>();
+        for (Phone phone : current) {
+            PhonesItem stored = new PhonesItem();
+            stored.setNumber(phone.getNumber());
+            stored.setCitycode(phone.getCityCode());
+            stored.setContrycode(phone.getCountryCode());
+            if (!toAdd.remove(stored))
+                toRemove.add(phone);
+        }
+        toRemove.forEach(phone -> {
+            current.remove(phone);
+            phoneDao.delete(phone);
+        });
+        toAdd.forEach(phoneItem -> current.add(phoneDao.save(Phone.builder()
+                .number(phoneItem.getNumber())
+                .cityCode(phoneItem.getCitycode())
+                .countryCode(phoneItem.getContrycode())
+                .user(user)
+                .build())));
+        return !toRemove.isEmpty() || !toAdd.isEmpty();
+    }
 }
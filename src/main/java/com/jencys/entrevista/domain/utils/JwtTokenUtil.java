@@ -1,6 +1,8 @@
 package com.jencys.entrevista.domain.utils;
 
 import com.jencys.entrevista.data.entity.User;
+import com.jencys.entrevista.domain.jfr.JwtEvent;
+import com.jencys.entrevista.domain.jfr.Outcome;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
@@ -46,8 +48,19 @@ public class JwtTokenUtil {
 
     //generate token for user
     public String generateToken(User user) {
-        Map<String, Object> claims = new HashMap<>();
-        return doGenerateToken(claims, user.getName());
+        JwtEvent event = new JwtEvent();
+        event.begin();
+        event.operation = JwtEvent.SIGN;
+        event.outcome = Outcome.ERROR;
+        try {
+            Map<String, Object> claims = new HashMap<>();
+            String token = doGenerateToken(claims, user.getName());
+            event.outcome = Outcome.OK;
+            event.tokenLength = token.length();
+            return token;
+        } finally {
+            event.commit();
+        }
     }
 
     //while creating the token -
@@ -64,8 +77,19 @@ public class JwtTokenUtil {
 
     //validate token
     public Boolean validateToken(String token, User userDetails) {
-        token = token.replace("Bearer ", "");
-        final String username = getUsernameFromToken(token);
-        return (username.equals(userDetails.getName()) && !isTokenExpired(token));
+        JwtEvent event = new JwtEvent();
+        event.begin();
+        event.operation = JwtEvent.VERIFY;
+        event.outcome = Outcome.ERROR;
+        try {
+            token = token.replace("Bearer ", "");
+            event.tokenLength = token.length();
+            final String username = getUsernameFromToken(token);
+            Boolean valid = (username.equals(userDetails.getName()) && !isTokenExpired(token));
+            event.outcome = valid ? Outcome.OK : Outcome.REJECTED;
+            return valid;
+        } finally {
+            event.commit();
+        }
     }
 }
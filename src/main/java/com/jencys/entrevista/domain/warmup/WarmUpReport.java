@@ -0,0 +1,18 @@
+package com.jencys.entrevista.domain.warmup;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.Map;
+
+@Getter
+@AllArgsConstructor
+public class WarmUpReport {
+    private final Duration duration;
+    private final int batches;
+    private final boolean stabilized;
+    // average latency per call of the first and the last batch, by operation
+    private final Map<String, Duration> before;
+    private final Map<String, Duration> after;
+}
@@ -0,0 +1,172 @@
+package com.jencys.entrevista.domain.warmup;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jencys.entrevista.domain.dto.PhonesItem;
+import com.jencys.entrevista.domain.dto.TokenResponse;
+import com.jencys.entrevista.domain.dto.UserDTO;
+import com.jencys.entrevista.domain.dto.UserPassword;
+import com.jencys.entrevista.domain.service.UserService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Drives synthetic register/token/login/list calls through {@link UserService} before the instance
+ * reports itself ready, so the JIT has compiled the service, JWT, Jackson and Hibernate paths by the
+ * time the load balancer sends traffic. Every iteration runs in its own transaction that is rolled
+ * back, so nothing is left in the database. Calls are grouped in batches and the warm-up stops once
+ * the per-call latency of consecutive batches stays within {@code warmup.tolerance}, or when the
+ * batch or time limit is reached.
+ * <p>
+ * The list step calls {@link UserService#findPage(int, int)} for the first page of
+ * {@code warmup.list-page-size} users, the bounded list endpoint, rather than
+ * {@link UserService#findAll()}, whose cost grows with the table.
+ */
+@Component
+@ConditionalOnProperty(name = "warmup.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class WarmUpRunner implements ApplicationRunner {
+    static final List<String> OPERATIONS = Arrays.asList("register", "token", "login", "list");
+    private static final String PASSWORD = "WarmUp2024";
+
+    private final UserService userService;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${warmup.batch-size:50}")
+    private int batchSize;
+    @Value("${warmup.tolerance:0.1}")
+    private double tolerance;
+    @Value("${warmup.stable-batches:3}")
+    private int stableBatches;
+    @Value("${warmup.list-page-size:20}")
+    private int listPageSize;
+    @Value("${warmup.max-batches:60}")
+    private int maxBatches;
+    @Value("${warmup.max-seconds:60}")
+    private long maxSeconds;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.REFUSING_TRAFFIC);
+        try {
+            WarmUpReport report = warmUp();
+            log.info("WARM-UP FINISHED IN {} ms AFTER {} BATCHES (stabilized: {})",
+                    report.getDuration().toMillis(), report.getBatches(), report.isStabilized());
+            OPERATIONS.forEach(operation -> log.info("WARM-UP {}: {} us/call -> {} us/call", operation,
+                    report.getBefore().get(operation).toNanos() / 1_000, report.getAfter().get(operation).toNanos() / 1_000));
+        } catch (RuntimeException e) {
+            log.warn("WARM-UP FAILED, ACCEPTING TRAFFIC COLD", e);
+        } finally {
+            AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.ACCEPTING_TRAFFIC);
+        }
+    }
+
+    WarmUpReport warmUp() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        long start = System.nanoTime();
+        long deadline = start + Duration.ofSeconds(maxSeconds).toNanos();
+        long[] first = null;
+        long[] last = null;
+        long previousTotal = 0;
+        int stable = 0;
+        int batches = 0;
+        while (batches < maxBatches && stable < stableBatches && System.nanoTime() < deadline) {
+            long[] batch = runBatch(transactionTemplate);
+            long total = Arrays.stream(batch).sum();
+            if (previousTotal > 0 && Math.abs(total - previousTotal) <= tolerance * previousTotal)
+                stable++;
+            else
+                stable = 0;
+            if (first == null)
+                first = batch;
+            last = batch;
+            previousTotal = total;
+            batches++;
+        }
+        if (first == null)
+            throw new IllegalStateException("warm-up ran no batches, check warmup.max-batches and warmup.max-seconds");
+
+        return new WarmUpReport(Duration.ofNanos(System.nanoTime() - start), batches, stable >= stableBatches,
+                perCall(first), perCall(last));
+    }
+
+    // total nanos spent in each operation over the batch
+    private long[] runBatch(TransactionTemplate transactionTemplate) {
+        long[] totals = new long[OPERATIONS.size()];
+        for (int i = 0; i < batchSize; i++) {
+            transactionTemplate.executeWithoutResult(status -> {
+                iteration(totals);
+                status.setRollbackOnly();
+            });
+        }
+        return totals;
+    }
+
+    private void iteration(long[] totals) {
+        String email = "warmup-" + UUID.randomUUID() + "@warmup.local";
+        UserDTO userDTO = new UserDTO();
+        userDTO.setName("Warm Up");
+        userDTO.setEmail(email);
+        userDTO.setPassword(PASSWORD);
+        PhonesItem phone = new PhonesItem();
+        phone.setNumber("1234567");
+        phone.setCitycode("1");
+        phone.setContrycode("57");
+        userDTO.setPhones(Collections.singletonList(phone));
+        UserPassword userPassword = new UserPassword(email, PASSWORD);
+
+        long started = System.nanoTime();
+        serialize("register", userService.registerUser(userDTO));
+        totals[0] += System.nanoTime() - started;
+
+        started = System.nanoTime();
+        ResponseEntity<Object> token = userService.getToken(userPassword);
+        serialize("token", token);
+        totals[1] += System.nanoTime() - started;
+
+        Map<String, Object> headers = new HashMap<>();
+        headers.put("authorization", "Bearer " + ((TokenResponse) token.getBody()).getToken());
+        started = System.nanoTime();
+        serialize("login", userService.login(userPassword, headers));
+        totals[2] += System.nanoTime() - started;
+
+        started = System.nanoTime();
+        serialize("list", userService.findPage(0, listPageSize));
+        totals[3] += System.nanoTime() - started;
+    }
+
+    // the body is written as the controller would, so the Jackson serializers get compiled too
+    private void serialize(String operation, ResponseEntity<Object> response) {
+        if (response.getStatusCode().isError())
+            throw new IllegalStateException(String.format("warm-up %s answered %s", operation, response.getStatusCode()));
+        try {
+            objectMapper.writeValueAsBytes(response.getBody());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(String.format("warm-up %s could not serialize its response", operation), e);
+        }
+    }
+
+    private Map<String, Duration> perCall(long[] totals) {
+        Map<String, Duration> perCall = new LinkedHashMap<>();
+        for (int i = 0; i < OPERATIONS.size(); i++)
+            perCall.put(OPERATIONS.get(i), Duration.ofNanos(totals[i] / batchSize));
+        return perCall;
+    }
+}
@@ -0,0 +1,133 @@
+package com.jencys.entrevista.presentation;
+
+import com.jencys.entrevista.domain.jfr.EndpointEvent;
+import com.jencys.entrevista.domain.jfr.Outcome;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+
+/**
+ * Emits an {@link EndpointEvent} around the whole request, so the event also covers the exception
+ * handlers, Jackson writing the body and the lazy loads open-in-view runs while it does.
+ */
+@Component
+public class EndpointEventFilter extends OncePerRequestFilter {
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getServletPath().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        EndpointEvent event = createEvent();
+        event.begin();
+        CountingResponseWrapper countingResponse = new CountingResponseWrapper(response);
+        boolean failed = true;
+        try {
+            filterChain.doFilter(request, countingResponse);
+            failed = false;
+        } finally {
+            countingResponse.flushWriter();
+            event.end();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            event.endpoint = pattern == null ? request.getServletPath() : pattern.toString();
+            event.httpMethod = request.getMethod();
+            event.status = failed ? 500 : countingResponse.getStatus();
+            event.outcome = Outcome.of(event.status);
+            event.requestBytes = request.getContentLengthLong();
+            event.responseBytes = countingResponse.getBytesWritten();
+            event.commit();
+        }
+    }
+
+    EndpointEvent createEvent() {
+        return new EndpointEvent();
+    }
+
+    // bodies are streamed without a Content-Length, so the bytes are counted as they are written
+    private static class CountingResponseWrapper extends HttpServletResponseWrapper {
+        private long bytesWritten;
+        private ServletOutputStream outputStream;
+        private PrintWriter writer;
+
+        CountingResponseWrapper(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                ServletOutputStream delegate = super.getOutputStream();
+                outputStream = new ServletOutputStream() {
+                    @Override
+                    public void write(int b) throws IOException {
+                        delegate.write(b);
+                        bytesWritten++;
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        delegate.write(b, off, len);
+                        bytesWritten += len;
+                    }
+
+                    @Override
+                    public void flush() throws IOException {
+                        delegate.flush();
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        delegate.close();
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return delegate.isReady();
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener writeListener) {
+                        delegate.setWriteListener(writeListener);
+                    }
+                };
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null)
+                writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), getCharacterEncoding()));
+            return writer;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            flushWriter();
+            super.flushBuffer();
+        }
+
+        void flushWriter() {
+            if (writer != null)
+                writer.flush();
+        }
+
+        long getBytesWritten() {
+            return bytesWritten;
+        }
+    }
+}
@@ -1,13 +1,21 @@
 package com.jencys.entrevista.presentation;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.jencys.entrevista.domain.dto.ErrorMessage;
 import com.jencys.entrevista.domain.dto.UserDTO;
 import com.jencys.entrevista.domain.dto.UserPassword;
 import com.jencys.entrevista.domain.service.UserService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Collections;
 import java.util.Map;
 
 @RestController
@@ -23,6 +31,12 @@ public class UserController {
         return userService.findAll();
     }
 
+    @GetMapping
+    public ResponseEntity<Object> findPage(@RequestParam(defaultValue = "0") int page, @RequestParam(defaultValue = "20") int size){
+        log.info("CALLING ENDPOINT: /api/user?page={}&size={} ", page, size);
+        return userService.findPage(page, size);
+    }
+
     @PostMapping("/register")
     public ResponseEntity<Object> register(@RequestBody UserDTO userDTO){
         log.info("CALLING ENDPOINT: /api/user/register ");
@@ -38,4 +52,24 @@ public class UserController {
     public ResponseEntity<Object> login(@RequestBody UserPassword userPassword, @RequestHeader Map<String, Object> headers){
         return userService.login(userPassword, headers);
     }
+
+    @PatchMapping(value = "/{id}", consumes = {"application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<Object> patch(@PathVariable String id, @RequestBody JsonNode patch,
+                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
+        log.info("CALLING ENDPOINT: /api/user/{} ", id);
+        return userService.patchUser(id, patch, ifMatch);
+    }
+
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<Object> conflict(ObjectOptimisticLockingFailureException e){
+        log.warn("OPTIMISTIC LOCK CONFLICT: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(new ErrorMessage(Collections.singletonList("El usuario fue modificado por otra peticion")));
+    }
+
+    // two requests can pass the email check at once, the unique constraint rejects the second one
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<Object> duplicated(DataIntegrityViolationException e){
+        log.warn("DATA INTEGRITY VIOLATION: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(new ErrorMessage(Collections.singletonList("Email ya registrado")));
+    }
 }
@@ -3,7 +3,7 @@ package com.jencys.entrevista;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = {"warmup.enabled=false", "auth.snapshot.enabled=false"})
 class EntrevistaApplicationTests {
 
     @Test
@@ -0,0 +1,107 @@
+package com.jencys.entrevista.domain.auth;
+
+import com.jencys.entrevista.data.dao.UserDao;
+import com.jencys.entrevista.data.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AuthDirectoryTest {
+    private final SpelAwareProxyProjectionFactory projections = new SpelAwareProxyProjectionFactory();
+    private UserDao userDao;
+    private AuthDirectory authDirectory;
+
+    @BeforeEach
+    void setUp() {
+        userDao = mock(UserDao.class);
+        authDirectory = new AuthDirectory(userDao, 5000);
+    }
+
+    @Test
+    void load_given_a_snapshot_will_build_the_entries_from_the_rows_and_drop_the_missing_ones() {
+        //arrange
+        AuthSnapshot.Entry changed = new AuthSnapshot.Entry("id-1", "juan@rodriguez.org", 1, 1_000L);
+        AuthSnapshot.Entry deleted = new AuthSnapshot.Entry("id-2", "ana@rodriguez.org", 1, 1_000L);
+        when(userDao.findByIdIn(anyCollection())).thenReturn(Collections.singletonList(
+                authUser("id-1", "juan@rodriguez.cl", "Nueva2024x", 2, 1_500L)));
+
+        //act
+        int loaded = authDirectory.load(new AuthSnapshot(1_000L, Arrays.asList(changed, deleted)));
+
+        //asserts
+        assertEquals(1, loaded);
+        assertFalse(authDirectory.find("juan@rodriguez.org").isPresent());
+        assertEquals(2, authDirectory.find("juan@rodriguez.cl").get().getVersion());
+        assertTrue(authDirectory.find("juan@rodriguez.cl").get().passwordMatches("Nueva2024x"));
+        assertFalse(authDirectory.find("ana@rodriguez.org").isPresent());
+        assertEquals(1_000L, authDirectory.getWatermark());
+    }
+
+    @Test
+    void applyChanges_will_reload_only_users_known_by_id_or_email() {
+        //arrange
+        authDirectory.put(entry("id-1", "juan@rodriguez.org", "Hunter22131", 1));
+        authDirectory.put(entry("id-3", "pedro@rodriguez.org", "Hunter22131", 0));
+        Date since = new Date(authDirectory.getWatermark() - 5000);
+        when(userDao.findByModifiedAfter(since)).thenReturn(Arrays.asList(
+                changedUser("id-1", "juan@rodriguez.cl", 2_000L),
+                changedUser("id-2", "ana@rodriguez.org", 3_000L),
+                changedUser("id-4", "pedro@rodriguez.org", 4_000L)));
+        when(userDao.findByIdIn(argThat(ids -> new HashSet<>(ids).equals(new HashSet<>(Arrays.asList("id-1", "id-4")))))).thenReturn(Arrays.asList(
+                authUser("id-1", "juan@rodriguez.cl", "Hunter22131", 2, 2_000L),
+                authUser("id-4", "pedro@rodriguez.org", "Nueva2024x", 0, 4_000L)));
+
+        //act
+        int applied = authDirectory.applyChanges();
+
+        //asserts
+        assertEquals(2, applied);
+        assertEquals(2, authDirectory.size());
+        assertFalse(authDirectory.find("juan@rodriguez.org").isPresent());
+        assertEquals(2, authDirectory.find("juan@rodriguez.cl").get().getVersion());
+        assertEquals("id-4", authDirectory.find("pedro@rodriguez.org").get().getId());
+        assertTrue(authDirectory.find("pedro@rodriguez.org").get().passwordMatches("Nueva2024x"));
+        assertFalse(authDirectory.find("ana@rodriguez.org").isPresent());
+    }
+
+    @Test
+    void put_given_an_older_version_will_keep_the_newer_entry() {
+        //arrange
+        authDirectory.put(entry("id-1", "juan@rodriguez.org", "Newer12345", 5));
+
+        //act
+        authDirectory.put(entry("id-1", "juan@rodriguez.org", "Older12345", 4));
+
+        //asserts
+        assertTrue(authDirectory.find("juan@rodriguez.org").get().passwordMatches("Newer12345"));
+    }
+
+    private static AuthEntry entry(String id, String email, String password, long version) {
+        return AuthEntry.from(User.builder().id(id).email(email).name("any-name").password(password).version(version).build());
+    }
+
+    private UserDao.ChangedUser changedUser(String id, String email, long modified) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("id", id);
+        row.put("email", email);
+        row.put("modified", new Date(modified));
+        return projections.createProjection(UserDao.ChangedUser.class, row);
+    }
+
+    private UserDao.AuthUser authUser(String id, String email, String password, long version, long modified) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("id", id);
+        row.put("email", email);
+        row.put("name", "any-name");
+        row.put("password", password);
+        row.put("isActive", Boolean.TRUE);
+        row.put("version", version);
+        row.put("modified", new Date(modified));
+        return projections.createProjection(UserDao.AuthUser.class, row);
+    }
+}
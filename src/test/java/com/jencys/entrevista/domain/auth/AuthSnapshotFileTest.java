@@ -0,0 +1,69 @@
+package com.jencys.entrevista.domain.auth;
+
+import com.jencys.entrevista.data.entity.User;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuthSnapshotFileTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void read_given_a_written_snapshot_will_return_the_same_entries() throws IOException {
+        //arrange
+        Path file = directory.resolve("auth").resolve("auth.snapshot");
+        String id = UUID.randomUUID().toString();
+        AuthEntry entry = AuthEntry.from(User.builder().id(id).email("juan@rodriguez.org").name("Juan Rodr\u00edguez")
+                .password("Hunter22131").isActive(Boolean.TRUE).version(3L).modified(new Date(1_650_000_000_000L)).build());
+        AuthEntry withoutVersion = AuthEntry.from(User.builder().id(UUID.randomUUID().toString()).email("ana@rodriguez.org")
+                .password("Hunter22131").build());
+        AuthEntry notUuid = AuthEntry.from(User.builder().id("any-id").email("any@email.com").password("any-password").build());
+
+        //act
+        int written = AuthSnapshotFile.write(file, 1_650_000_000_500L, Arrays.asList(entry, withoutVersion, notUuid));
+        AuthSnapshot snapshot = AuthSnapshotFile.read(file);
+
+        //asserts
+        assertEquals(2, written);
+        assertEquals(1_650_000_000_500L, snapshot.getWatermark());
+        assertEquals(2, snapshot.getEntries().size());
+        AuthSnapshot.Entry read = snapshot.getEntries().get(0);
+        assertEquals(id, read.getId());
+        assertEquals("juan@rodriguez.org", read.getEmail());
+        assertEquals(3, read.getVersion());
+        assertEquals(1_650_000_000_000L, read.getModified());
+        assertEquals("ana@rodriguez.org", snapshot.getEntries().get(1).getEmail());
+        assertEquals(-1, snapshot.getEntries().get(1).getVersion());
+        String content = new String(Files.readAllBytes(file), "ISO-8859-1");
+        assertFalse(content.contains("Hunter22131"));
+        assertFalse(content.contains("Juan Rodr"));
+        if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix"))
+            assertEquals("rw-------", PosixFilePermissions.toString(Files.getPosixFilePermissions(file)));
+    }
+
+    @Test
+    void read_given_a_corrupt_snapshot_will_throw_IOException() throws IOException {
+        //arrange
+        Path file = directory.resolve("auth.snapshot");
+        AuthSnapshotFile.write(file, 0, Arrays.asList(AuthEntry.from(User.builder().id(UUID.randomUUID().toString())
+                .email("juan@rodriguez.org").name("Juan").password("Hunter22131").build())));
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[20] ^= 0x7F;
+        Files.write(file, bytes);
+
+        //act & asserts
+        assertThrows(IOException.class, () -> AuthSnapshotFile.read(file));
+    }
+}
@@ -0,0 +1,123 @@
+package com.jencys.entrevista.domain.outbox;
+
+import com.jencys.entrevista.data.dao.OutboxDao;
+import com.jencys.entrevista.data.entity.OutboxEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.data.domain.Pageable;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class OutboxRelayTest {
+    private OutboxDao outboxDao;
+    private OutboxPublisher publisher;
+    private MeterRegistry meterRegistry;
+    private OutboxRelay outboxRelay;
+
+    @BeforeEach
+    void setUp() {
+        outboxDao = mock(OutboxDao.class);
+        publisher = mock(OutboxPublisher.class);
+        meterRegistry = new SimpleMeterRegistry();
+        outboxRelay = new OutboxRelay(outboxDao, publisher, meterRegistry, 2, 3);
+    }
+
+    @Test
+    void poll_given_pending_events_will_publish_and_delete_them() {
+        //arrange
+        OutboxEvent first = event(1L, "user-1");
+        when(outboxDao.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class))).thenReturn(Collections.singletonList(first));
+        when(outboxDao.findFirstByOrderByIdAsc()).thenReturn(Optional.empty());
+
+        //act
+        outboxRelay.poll();
+
+        //asserts
+        verify(publisher).publish(first);
+        verify(outboxDao).deleteAllByIdInBatch(Collections.singletonList(1L));
+        verify(outboxDao, times(1)).findByIdGreaterThanOrderByIdAsc(anyLong(), any(Pageable.class));
+        assertEquals(1.0, meterRegistry.get("outbox.published").counter().count());
+        assertEquals(0.0, meterRegistry.get("outbox.pending").gauge().value());
+    }
+
+    @Test
+    void poll_given_a_failing_head_will_hold_back_that_user_and_publish_the_next_pages() {
+        //arrange
+        OutboxEvent failing = event(1L, "user-1");
+        OutboxEvent held = event(2L, "user-1");
+        OutboxEvent other = event(3L, "user-2");
+        when(outboxDao.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class))).thenReturn(Arrays.asList(failing, held));
+        when(outboxDao.findByIdGreaterThanOrderByIdAsc(eq(2L), any(Pageable.class))).thenReturn(Collections.singletonList(other));
+        when(outboxDao.findFirstByOrderByIdAsc()).thenReturn(Optional.of(failing));
+        when(outboxDao.count()).thenReturn(2L);
+        doThrow(new IllegalStateException("any-error")).when(publisher).publish(failing);
+
+        //act
+        outboxRelay.poll();
+
+        //asserts
+        verify(publisher, never()).publish(held);
+        verify(publisher).publish(other);
+        verify(outboxDao).deleteAllByIdInBatch(Collections.singletonList(3L));
+        assertEquals(1.0, meterRegistry.get("outbox.failed").counter().count());
+        assertEquals(2.0, meterRegistry.get("outbox.pending").gauge().value());
+    }
+
+    @Test
+    void poll_after_the_end_of_the_outbox_will_retry_the_held_back_events_in_order() {
+        //arrange
+        OutboxEvent failing = event(1L, "user-1");
+        OutboxEvent held = event(2L, "user-1");
+        when(outboxDao.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class))).thenReturn(Arrays.asList(failing, held));
+        when(outboxDao.findByIdGreaterThanOrderByIdAsc(eq(2L), any(Pageable.class))).thenReturn(Collections.emptyList());
+        when(outboxDao.findFirstByOrderByIdAsc()).thenReturn(Optional.empty());
+        doThrow(new IllegalStateException("any-error")).doNothing().when(publisher).publish(failing);
+
+        //act
+        outboxRelay.poll();
+        outboxRelay.poll();
+
+        //asserts
+        InOrder inOrder = inOrder(publisher);
+        inOrder.verify(publisher, times(2)).publish(failing);
+        inOrder.verify(publisher).publish(held);
+        verify(outboxDao).deleteAllByIdInBatch(Arrays.asList(1L, 2L));
+    }
+
+    @Test
+    void poll_given_a_backlog_will_stop_after_the_batch_limit_and_continue_from_the_cursor() {
+        //arrange
+        when(outboxDao.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Pageable.class))).thenAnswer(invocation -> {
+            Long after = invocation.getArgument(0);
+            return Arrays.asList(event(after + 1, "user-" + (after + 1)), event(after + 2, "user-" + (after + 2)));
+        });
+        when(outboxDao.findFirstByOrderByIdAsc()).thenReturn(Optional.empty());
+
+        //act
+        outboxRelay.poll();
+        outboxRelay.poll();
+
+        //asserts
+        InOrder inOrder = inOrder(outboxDao);
+        for (long after = 0; after <= 10; after += 2)
+            inOrder.verify(outboxDao).findByIdGreaterThanOrderByIdAsc(eq(after), any(Pageable.class));
+        verify(outboxDao, times(6)).findByIdGreaterThanOrderByIdAsc(anyLong(), any(Pageable.class));
+        verify(outboxDao, times(2)).count();
+    }
+
+    private static OutboxEvent event(Long id, String aggregateId) {
+        return OutboxEvent.builder()
+                .id(id)
+                .aggregateId(aggregateId)
+                .eventType(UserRegisteredEvent.TYPE)
+                .payload("{}")
+                .created(new Date())
+                .build();
+    }
+}
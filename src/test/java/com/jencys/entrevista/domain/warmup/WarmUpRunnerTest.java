@@ -0,0 +1,88 @@
+package com.jencys.entrevista.domain.warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jencys.entrevista.data.entity.User;
+import com.jencys.entrevista.domain.dto.ErrorMessage;
+import com.jencys.entrevista.domain.dto.TokenResponse;
+import com.jencys.entrevista.domain.dto.UserDTO;
+import com.jencys.entrevista.domain.dto.UserPassword;
+import com.jencys.entrevista.domain.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class WarmUpRunnerTest {
+    private UserService userService;
+    private PlatformTransactionManager transactionManager;
+    private ApplicationEventPublisher eventPublisher;
+    private WarmUpRunner warmUpRunner;
+
+    @BeforeEach
+    void setUp() {
+        userService = mock(UserService.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        when(transactionManager.getTransaction(any(TransactionDefinition.class))).thenAnswer(invocation -> new SimpleTransactionStatus());
+        warmUpRunner = new WarmUpRunner(userService, transactionManager, new ObjectMapper(), eventPublisher);
+        ReflectionTestUtils.setField(warmUpRunner, "batchSize", 5);
+        ReflectionTestUtils.setField(warmUpRunner, "tolerance", Double.MAX_VALUE);
+        ReflectionTestUtils.setField(warmUpRunner, "stableBatches", 3);
+        ReflectionTestUtils.setField(warmUpRunner, "listPageSize", 20);
+        ReflectionTestUtils.setField(warmUpRunner, "maxBatches", 10);
+        ReflectionTestUtils.setField(warmUpRunner, "maxSeconds", 60L);
+    }
+
+    @Test
+    void warmUp_given_stable_latencies_will_stop_and_roll_back_every_iteration() {
+        //arrange
+        when(userService.registerUser(any(UserDTO.class))).thenReturn(ResponseEntity.ok(Collections.emptyMap()));
+        when(userService.getToken(any(UserPassword.class))).thenReturn(ResponseEntity.ok(new TokenResponse("any-token")));
+        when(userService.login(any(UserPassword.class), anyMap())).thenReturn(ResponseEntity.ok(Collections.emptyMap()));
+        when(userService.findPage(0, 20)).thenReturn(ResponseEntity.ok(Collections.singletonList(new User())));
+
+        //act
+        WarmUpReport report = warmUpRunner.warmUp();
+
+        //asserts
+        assertTrue(report.isStabilized());
+        assertEquals(4, report.getBatches());
+        assertEquals(WarmUpRunner.OPERATIONS, List.copyOf(report.getAfter().keySet()));
+        verify(userService, times(20)).registerUser(any(UserDTO.class));
+        verify(userService, times(20)).findPage(0, 20);
+        verify(userService, never()).findAll();
+        ArgumentCaptor<TransactionStatus> transactions = ArgumentCaptor.forClass(TransactionStatus.class);
+        verify(transactionManager, times(20)).commit(transactions.capture());
+        assertTrue(transactions.getAllValues().stream().allMatch(TransactionStatus::isRollbackOnly));
+    }
+
+    @Test
+    void run_given_a_failing_service_will_still_accept_traffic() {
+        //arrange
+        when(userService.registerUser(any(UserDTO.class)))
+                .thenReturn(ResponseEntity.badRequest().body(new ErrorMessage(Collections.singletonList("any-error"))));
+
+        //act
+        warmUpRunner.run(null);
+
+        //asserts
+        ArgumentCaptor<AvailabilityChangeEvent> events = ArgumentCaptor.forClass(AvailabilityChangeEvent.class);
+        verify(eventPublisher, times(2)).publishEvent(events.capture());
+        assertEquals(ReadinessState.REFUSING_TRAFFIC, events.getAllValues().get(0).getState());
+        assertEquals(ReadinessState.ACCEPTING_TRAFFIC, events.getAllValues().get(1).getState());
+    }
+}
@@ -0,0 +1,112 @@
+package com.jencys.entrevista.presentation;
+
+import com.jencys.entrevista.domain.jfr.EndpointEvent;
+import com.jencys.entrevista.domain.jfr.Outcome;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EndpointEventFilterTest {
+    private static final String BODY = "{\"mensaje\":[\"contrase\u00f1a\"]}";
+
+    private EndpointEvent event;
+    private EndpointEventFilter filter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @BeforeEach
+    void setUp() {
+        filter = new EndpointEventFilter() {
+            @Override
+            EndpointEvent createEvent() {
+                event = super.createEvent();
+                return event;
+            }
+        };
+        request = new MockHttpServletRequest("PATCH", "/api/user/any-id");
+        request.setServletPath("/api/user/any-id");
+        request.setContent("{\"name\":\"other-name\"}".getBytes(StandardCharsets.UTF_8));
+        response = new MockHttpServletResponse();
+    }
+
+    @Test
+    void doFilter_given_a_handler_writing_to_the_writer_will_record_the_pattern_status_and_sizes() throws Exception {
+        //arrange
+        MockFilterChain chain = new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/user/{id}");
+                resp.setStatus(409);
+                resp.setCharacterEncoding("UTF-8");
+                resp.getWriter().write(BODY);
+            }
+        });
+
+        //act
+        filter.doFilter(request, response, chain);
+
+        //asserts
+        assertEquals("/api/user/{id}", event.endpoint);
+        assertEquals("PATCH", event.httpMethod);
+        assertEquals(409, event.status);
+        assertEquals(Outcome.REJECTED, event.outcome);
+        assertEquals(21, event.requestBytes);
+        assertEquals(BODY.getBytes(StandardCharsets.UTF_8).length, event.responseBytes);
+        assertEquals(BODY, response.getContentAsString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void doFilter_given_a_handler_writing_to_the_stream_will_record_the_pattern_status_and_sizes() throws Exception {
+        //arrange
+        byte[] body = BODY.getBytes(StandardCharsets.UTF_8);
+        MockFilterChain chain = new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/user/{id}");
+                resp.setStatus(200);
+                resp.getOutputStream().write(body[0]);
+                resp.getOutputStream().write(body, 1, body.length - 1);
+            }
+        });
+
+        //act
+        filter.doFilter(request, response, chain);
+
+        //asserts
+        assertEquals("/api/user/{id}", event.endpoint);
+        assertEquals(200, event.status);
+        assertEquals(Outcome.OK, event.outcome);
+        assertEquals(21, event.requestBytes);
+        assertEquals(body.length, event.responseBytes);
+        assertArrayEquals(body, response.getContentAsByteArray());
+    }
+
+    @Test
+    void doFilter_given_a_failing_handler_will_record_500() {
+        //arrange
+        MockFilterChain chain = new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) {
+                throw new IllegalStateException("any-error");
+            }
+        });
+
+        //act & asserts
+        assertThrows(IllegalStateException.class, () -> filter.doFilter(request, response, chain));
+        assertEquals("/api/user/any-id", event.endpoint);
+        assertEquals(500, event.status);
+        assertEquals(Outcome.ERROR, event.outcome);
+        assertEquals(0, event.responseBytes);
+    }
+}
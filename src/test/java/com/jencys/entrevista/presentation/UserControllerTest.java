@@ -0,0 +1,28 @@
+package com.jencys.entrevista.presentation;
+
+import com.jencys.entrevista.domain.dto.ErrorMessage;
+import com.jencys.entrevista.domain.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class UserControllerTest {
+    private final UserController userController = new UserController(mock(UserService.class));
+
+    @Test
+    void duplicated_given_a_unique_constraint_violation_will_return_CONFLICT() {
+        //act
+        ResponseEntity<Object> response = userController.duplicated(
+                new DataIntegrityViolationException("could not execute statement"));
+
+        //asserts
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertEquals(Collections.singletonList("Email ya registrado"), ((ErrorMessage) response.getBody()).getMensaje());
+    }
+}
@@ -0,0 +1,34 @@
+package com.jencys.entrevista.tools;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JfrRecordingAnalyzerTest {
+
+    @Test
+    void summarize_given_durations_per_operation_will_return_percentiles() {
+        //arrange
+        JfrRecordingAnalyzer analyzer = new JfrRecordingAnalyzer();
+        for (long i = 100; i >= 1; i--)
+            analyzer.add("Endpoint /api/user/login ok", i);
+        analyzer.add("Jwt sign ok", 7);
+
+        //act
+        Map<String, JfrRecordingAnalyzer.LatencySummary> summaries = analyzer.summarize();
+
+        //asserts
+        assertEquals(2, summaries.size());
+        JfrRecordingAnalyzer.LatencySummary login = summaries.get("Endpoint /api/user/login ok");
+        assertEquals(100, login.getCount());
+        assertEquals(50, login.getP50());
+        assertEquals(90, login.getP90());
+        assertEquals(99, login.getP99());
+        assertEquals(100, login.getMax());
+        JfrRecordingAnalyzer.LatencySummary sign = summaries.get("Jwt sign ok");
+        assertEquals(7, sign.getP50());
+        assertEquals(7, sign.getP99());
+    }
+}
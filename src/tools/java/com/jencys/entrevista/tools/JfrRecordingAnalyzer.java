@@ -0,0 +1,100 @@
+package com.jencys.entrevista.tools;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * Summarizes a JFR recording into per-operation latency percentiles for the
+ * application events of {@code com.jencys.entrevista.domain.jfr}. Lives in the {@code tools}
+ * source set, so it is not packaged in the application jar.
+ * <p>
+ * Usage: {@code ./gradlew analyzeJfr -Precording=entrevista.jfr}
+ */
+public class JfrRecordingAnalyzer {
+    private static final String EVENT_PREFIX = "com.jencys.entrevista.";
+
+    private final Map<String, List<Long>> durationsByOperation = new TreeMap<>();
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: JfrRecordingAnalyzer <recording.jfr>");
+            System.exit(1);
+        }
+        JfrRecordingAnalyzer analyzer = new JfrRecordingAnalyzer();
+        analyzer.read(Paths.get(args[0]));
+        analyzer.print(System.out);
+    }
+
+    public void read(Path recording) throws IOException {
+        try (RecordingFile file = new RecordingFile(recording)) {
+            while (file.hasMoreEvents()) {
+                add(file.readEvent());
+            }
+        }
+    }
+
+    void add(RecordedEvent event) {
+        String name = event.getEventType().getName();
+        if (!name.startsWith(EVENT_PREFIX))
+            return;
+        add(operationKey(event, name.substring(EVENT_PREFIX.length())), event.getDuration().toNanos());
+    }
+
+    void add(String operation, long durationNanos) {
+        durationsByOperation.computeIfAbsent(operation, key -> new ArrayList<>()).add(durationNanos);
+    }
+
+    public Map<String, LatencySummary> summarize() {
+        Map<String, LatencySummary> summaries = new LinkedHashMap<>();
+        durationsByOperation.forEach((operation, durations) -> {
+            long[] sorted = durations.stream().mapToLong(Long::longValue).sorted().toArray();
+            summaries.put(operation, new LatencySummary(sorted.length,
+                    percentile(sorted, 50), percentile(sorted, 90), percentile(sorted, 99), sorted[sorted.length - 1]));
+        });
+        return summaries;
+    }
+
+    public void print(PrintStream out) {
+        out.printf("%-40s %8s %10s %10s %10s %10s%n", "operation", "count", "p50(ms)", "p90(ms)", "p99(ms)", "max(ms)");
+        summarize().forEach((operation, summary) -> out.printf("%-40s %8d %10.3f %10.3f %10.3f %10.3f%n",
+                operation, summary.getCount(),
+                millis(summary.getP50()), millis(summary.getP90()), millis(summary.getP99()), millis(summary.getMax())));
+    }
+
+    private static String operationKey(RecordedEvent event, String eventName) {
+        StringBuilder key = new StringBuilder(eventName);
+        for (String field : new String[]{"endpoint", "operation", "outcome"}) {
+            if (event.hasField(field) && event.getValue(field) != null)
+                key.append(' ').append((String) event.getValue(field));
+        }
+        return key.toString();
+    }
+
+    // nearest-rank percentile over an ascending array
+    static long percentile(long[] sorted, int percentile) {
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.max(rank, 1) - 1];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class LatencySummary {
+        private final int count;
+        private final long p50;
+        private final long p90;
+        private final long p99;
+        private final long max;
+    }
+}